@@ -1,10 +1,16 @@
 package fr.ribesg.imag.tsp;
 import fr.ribesg.imag.tsp.algorithm.DivideAndConquerTSP;
 import fr.ribesg.imag.tsp.algorithm.GreedyTSP;
+import fr.ribesg.imag.tsp.algorithm.SegmentOptimizer;
 import fr.ribesg.imag.tsp.algorithm.TSP;
+import fr.ribesg.imag.tsp.algorithm.ThresholdCalibrator;
 import fr.ribesg.imag.tsp.collection.PointList;
+import fr.ribesg.imag.tsp.distributed.Coordinator;
+import fr.ribesg.imag.tsp.distributed.Worker;
 import fr.ribesg.imag.tsp.file.Reader;
 import fr.ribesg.imag.tsp.file.Writer;
+import fr.ribesg.imag.tsp.generator.Distribution;
+import fr.ribesg.imag.tsp.generator.Generator;
 import fr.ribesg.imag.tsp.utils.Timer;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
@@ -13,11 +19,14 @@ import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.data.xy.DefaultXYDataset;
 
 import javax.swing.*;
+import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Random;
 
 /**
  * This is the main class of the TSP solver.
@@ -36,13 +45,18 @@ public class TSPMain {
 		return format;
 	}
 
-	private static final Random rand = new Random();
-
 	public static void main(final String[] args) {
 		if (!new TSPMain().exec(args)) {
 			System.out.println("Usage: ");
 			System.out.println("\t--nbPoints X                | Choose number of points");
+			System.out.println("\t--seed X                    | Seed of the random points, same seed gives same points");
+			System.out.println("\t--distribution D            | D = uniform, clusters, grid or roads (default uniform)");
 			System.out.println("\t--divLimit X                | Choose a threshold for Divide & Conquer");
+			System.out.println("\t--divLimit auto             | Calibrate the threshold on the instance, cached per machine,");
+			System.out.println("\t                            | instance size and spread of the points");
+			System.out.println("\t--recalibrate               | Ignore the cached threshold with --divLimit auto");
+			System.out.println("\t--optimize X                | Improve the found tours with X rounds of parallel 2-opt");
+			System.out.println("\t                            | --optimize not available in Benchmark mode");
 			System.out.println("\t--graph                     | Show graphs (not compatible with --bench)");
 			System.out.println("\t--bench X                   | Benchmark mode, re-run X times (not compatible with --graph)");
 			System.out.println("\t--file internal N           | N = Name of the data set, uses the internal file");
@@ -52,6 +66,8 @@ public class TSPMain {
 			System.out.println("\t                            | --write not available in Benchmark mode");
 			System.out.println("\t--algo <greedy|divide|both> | Write the result points to a result.txt file");
 			System.out.println("\t                            | --write not available in Benchmark mode");
+			System.out.println("\t--worker P                  | Worker mode, solve partitions sent to port P");
+			System.out.println("\t--workers H:P,H:P,...       | Distribute Divide & Conquer over these Workers");
 			System.out.println();
 			System.out.println("\t--help / -h / help | Show this help");
 		}
@@ -60,7 +76,14 @@ public class TSPMain {
 	private boolean exec(final String[] args) {
 		// Initialize values to default
 		int nbPoints = 10_000;
+		long seed = System.nanoTime();
+		String distributionName = "uniform";
 		int divLimit = 20;
+		boolean autoDivLimit = false;
+		boolean recalibrate = false;
+		int optimizeRounds = 0;
+		int workerPort = -1;
+		final List<InetSocketAddress> workers = new ArrayList<>();
 		boolean graphical = false;
 		boolean benchmark = false;
 		int benchmarkAmount = 10;
@@ -78,8 +101,33 @@ public class TSPMain {
 					case "--nbpoints":
 						nbPoints = Integer.parseInt(args[i + 1]);
 						break;
+					case "--seed":
+						seed = Long.parseLong(args[i + 1]);
+						break;
+					case "--distribution":
+						distributionName = args[i + 1];
+						break;
 					case "--divlimit":
-						divLimit = Integer.parseInt(args[i + 1]);
+						if (args[i + 1].equalsIgnoreCase("auto")) {
+							autoDivLimit = true;
+						} else {
+							divLimit = Integer.parseInt(args[i + 1]);
+						}
+						break;
+					case "--recalibrate":
+						recalibrate = true;
+						break;
+					case "--optimize":
+						optimizeRounds = Integer.parseInt(args[i + 1]);
+						break;
+					case "--worker":
+						workerPort = Integer.parseInt(args[i + 1]);
+						break;
+					case "--workers":
+						for (final String worker : args[i + 1].split(",")) {
+							final int separator = worker.lastIndexOf(':');
+							workers.add(new InetSocketAddress(worker.substring(0, separator), Integer.parseInt(worker.substring(separator + 1))));
+						}
 						break;
 					case "--graph":
 						graphical = true;
@@ -132,6 +180,17 @@ public class TSPMain {
 			return false;
 		}
 
+		// Worker mode
+		if (workerPort != -1) {
+			System.out.println("Worker mode selected");
+			try {
+				new Worker(workerPort).run();
+			} catch (final IOException e) {
+				System.out.println("\tUnable to listen on port " + workerPort + ": " + e.getMessage());
+			}
+			return true;
+		}
+
 		// The data we will play on
 		PointList points;
 
@@ -160,13 +219,32 @@ public class TSPMain {
 		// Random mode
 		else {
 			System.out.println("Random mode selected");
-			System.out.println("\tCreating data structure...");
-			points = new PointList(nbPoints, 0d, 1d, 0d, 1d);
-			System.out.println("\tGenerating " + nbPoints + " random points...");
-			for (int i = 0; i < nbPoints; i++) {
-				points.add(rand.nextFloat(), rand.nextFloat());
+			final Distribution distribution = Generator.getDistribution(distributionName, nbPoints, seed);
+			if (distribution == null) {
+				System.out.println("\tUnknown distribution '" + distributionName + "', aborting.");
+				return true;
 			}
+			System.out.println("\tGenerating " + nbPoints + " random points (" + distributionName.toLowerCase() + ", seed " + seed + ")...");
+			final Timer timer = new Timer().start();
+			points = Generator.generate(distribution, nbPoints, seed);
+			timer.stop();
+			if (points == null) {
+				return true;
+			}
+			System.out.println("\tDone.");
+			System.out.println("\tElapsed time: " + timer.diffString());
+		}
+
+		if (autoDivLimit && (divide || benchmark)) {
+			System.out.println("Calibrating Divide & Conquer threshold");
+			final Timer timer = new Timer().start();
+			final ThresholdCalibrator.Result calibration = new ThresholdCalibrator().calibrate(points, recalibrate);
+			timer.stop();
+			divLimit = calibration.getThreshold();
 			System.out.println("\tDone.");
+			System.out.println("\tElapsed time: " + timer.diffString());
+			System.out.println("\tChosen threshold: " + divLimit);
+			System.out.println("\tReason: " + calibration.getReason());
 		}
 
 		if (!benchmark) {
@@ -188,9 +266,15 @@ public class TSPMain {
 				System.out.println("\tDone.");
 				System.out.println("\tElapsed time: " + timer1.diffString());
 				System.out.println("\tTotal length found: " + result1.getTotalLength(true));
+				// Greedy works in place and returns the points, which are still
+				// needed by Divide & Conquer, so optimize a copy of its tour
+				final PointList tour1 = optimizeRounds > 0 ? result1.copy() : result1;
+				if (optimizeRounds > 0 && !this.optimize("Greedy", tour1, optimizeRounds, graphical)) {
+					return true;
+				}
 				if (write) {
 					System.out.println("\tWriting result to file...");
-					Writer.write(result1, "resultG.txt");
+					Writer.write(tour1, "resultG.txt");
 					System.out.println("\tDone.");
 				}
 			}
@@ -198,7 +282,7 @@ public class TSPMain {
 			if (divide) {
 				System.out.println("Executing Divide & Conquer algorithm");
 				final Timer timer2 = new Timer().start();
-				final PointList result2 = new DivideAndConquerTSP(divLimit).run(points);
+				final PointList result2 = this.getDivideAlgorithm(divLimit, workers).run(points);
 				timer2.stop();
 				if (graphical) {
 					final StringBuilder titleBuilder = new StringBuilder();
@@ -213,6 +297,9 @@ public class TSPMain {
 				System.out.println("\tDone.");
 				System.out.println("\tElapsed time: " + timer2.diffString());
 				System.out.println("\tTotal length found: " + result2.getTotalLength(true));
+				if (optimizeRounds > 0 && !this.optimize("Divide & Conquer", result2, optimizeRounds, graphical)) {
+					return true;
+				}
 				if (write) {
 					System.out.println("\tWriting result to file...");
 					Writer.write(result2, "resultD&C.txt");
@@ -223,7 +310,7 @@ public class TSPMain {
 			System.out.println("Executing benchmark mode (" + benchmarkAmount + " times)");
 			long totalGreedy = 0;
 			final TSP greedyAlgo = new GreedyTSP();
-			final TSP divideAlgo = new DivideAndConquerTSP(divLimit);
+			final TSP divideAlgo = this.getDivideAlgorithm(divLimit, workers);
 			long totalDivide = 0;
 			for (int i = 0; i < benchmarkAmount; i++) {
 				System.out.print("\tExecution Greedy number " + i + "... ");
@@ -247,6 +334,60 @@ public class TSPMain {
 		return true;
 	}
 
+	/**
+	 * Gets the Divide & Conquer algorithm, distributed if Workers were
+	 * provided.
+	 *
+	 * @param threshold the limit at which we stop dividing
+	 * @param workers   the addresses of the Workers, may be empty
+	 *
+	 * @return the algorithm to use
+	 */
+	private TSP getDivideAlgorithm(final int threshold, final List<InetSocketAddress> workers) {
+		if (workers.isEmpty()) {
+			return new DivideAndConquerTSP(threshold);
+		} else {
+			return new Coordinator(workers, threshold);
+		}
+	}
+
+	/**
+	 * Improves a tour in place with the {@link SegmentOptimizer}.
+	 *
+	 * @param name      the name of the algorithm which found the tour
+	 * @param tour      the tour to be improved
+	 * @param rounds    the amount of optimization rounds
+	 * @param graphical if we show the improved tour
+	 *
+	 * @return false if the optimization failed
+	 */
+	private boolean optimize(final String name, final PointList tour, final int rounds, final boolean graphical) {
+		System.out.println("Optimizing " + name + " tour (" + rounds + " rounds)");
+		final Timer timer = new Timer().start();
+		final PointList result = new SegmentOptimizer(rounds).run(tour);
+		timer.stop();
+		if (result == null) {
+			System.out.println("\tOptimization failed, aborting.");
+			return false;
+		}
+		if (graphical) {
+			final StringBuilder titleBuilder = new StringBuilder();
+			titleBuilder.append("Optimized ");
+			titleBuilder.append(name);
+			titleBuilder.append(" Result on ");
+			titleBuilder.append(result.size());
+			titleBuilder.append(" points - Total length: ");
+			titleBuilder.append(getFormatter().format(result.getTotalLength(true)));
+			titleBuilder.append(" - Elapsed time: ");
+			titleBuilder.append(timer.diffString());
+			this.show(titleBuilder.toString(), result);
+		}
+		System.out.println("\tDone.");
+		System.out.println("\tElapsed time: " + timer.diffString());
+		System.out.println("\tTotal length found: " + result.getTotalLength(true));
+		return true;
+	}
+
 	/**
 	 * This method opens a JDialog with a graph in another Thread.
 	 *
@@ -0,0 +1,145 @@
+package fr.ribesg.imag.tsp.algorithm;
+import fr.ribesg.imag.tsp.collection.PointList;
+import fr.ribesg.imag.tsp.utils.ThreadPools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Improves an existing tour, like the ones found by {@link GreedyTSP} or
+ * {@link DivideAndConquerTSP}, using all cores.
+ * <p/>
+ * The tour is cut into contiguous segments, one per core. Both ends of each
+ * segment are fixed, so segments can be optimized independently and in
+ * parallel with windowed 2-opt moves, then simply put back together. The
+ * segment boundaries are shifted between rounds so that the parts of the
+ * tour around the previous boundaries get improved too.
+ * <p/>
+ * The provided list is modified.
+ *
+ * @author Ribesg
+ */
+public class SegmentOptimizer implements TSP {
+
+	// Pool of threads, one per core as optimization is CPU bound
+	private static final ExecutorService executors = ThreadPools.newCpuBoundPool("SegmentOptimizer");
+
+	// Maximum distance, in the tour, between the two edges of a 2-opt move
+	private static final int WINDOW = 50;
+
+	// Maximum amount of passes over a segment in a single round
+	private static final int MAX_PASSES = 10;
+
+	// Minimum gain for a move to be applied, prevents looping on rounding errors
+	private static final double EPSILON = 1e-9;
+
+	// Amount of rounds, boundaries are shifted between each round
+	private final int rounds;
+
+	public SegmentOptimizer(final int rounds) {
+		this.rounds = rounds;
+	}
+
+	@Override
+	public PointList run(final PointList list) {
+		final float[][] tour = list.getFloatMap();
+		final int size = tour.length;
+
+		// Keep segments long enough compared to the window
+		final int nbSegments = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), size / (4 * WINDOW)));
+		final int segmentLength = size / nbSegments;
+		if (segmentLength < 4) {
+			return list;
+		}
+
+		for (int round = 0; round < this.rounds; round++) {
+			final int offset = (int) ((long) round * segmentLength / this.rounds);
+			final List<Callable<Void>> tasks = new ArrayList<>(nbSegments);
+			for (int s = 0; s < nbSegments; s++) {
+				final int start = offset + s * segmentLength;
+				// The last segment takes what's left, and wraps around to the first one
+				final int length = s == nbSegments - 1 ? size - (nbSegments - 1) * segmentLength : segmentLength;
+				tasks.add(new Callable<Void>() {
+
+					@Override
+					public Void call() throws Exception {
+						new Segment(tour, start, length).optimize();
+						return null;
+					}
+				});
+			}
+			try {
+				for (final Future<Void> future : executors.invokeAll(tasks)) {
+					future.get();
+				}
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+				return null;
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * A part of the tour going from position start to position start + length,
+	 * both included and both fixed. Positions wrap around the end of the tour.
+	 */
+	private class Segment {
+
+		private final float[][] tour;
+		private final int       start;
+		private final int       length;
+
+		private Segment(final float[][] tour, final int start, final int length) {
+			this.tour = tour;
+			this.start = start;
+			this.length = length;
+		}
+
+		private void optimize() {
+			boolean improved = true;
+			for (int pass = 0; pass < MAX_PASSES && improved; pass++) {
+				improved = false;
+				// Edges (i, i+1) and (j, j+1), only the points in ]i..j+1[ move
+				for (int i = 0; i < this.length - 2; i++) {
+					final int maxJ = Math.min(this.length - 1, i + WINDOW);
+					for (int j = i + 2; j <= maxJ; j++) {
+						final double gain = this.distance(i, i + 1) + this.distance(j, j + 1) - this.distance(i, j) - this.distance(i + 1, j + 1);
+						if (gain > EPSILON) {
+							this.reverse(i + 1, j);
+							improved = true;
+						}
+					}
+				}
+			}
+		}
+
+		private float[] get(final int position) {
+			return this.tour[(this.start + position) % this.tour.length];
+		}
+
+		private double distance(final int i, final int j) {
+			final float[] p1 = this.get(i);
+			final float[] p2 = this.get(j);
+			final double xDiff = p2[0] - p1[0];
+			final double yDiff = p2[1] - p1[1];
+			return Math.sqrt(xDiff * xDiff + yDiff * yDiff);
+		}
+
+		private void reverse(int i, int j) {
+			while (i < j) {
+				final int a = (this.start + i) % this.tour.length;
+				final int b = (this.start + j) % this.tour.length;
+				final float[] tmp = this.tour[a];
+				this.tour[a] = this.tour[b];
+				this.tour[b] = tmp;
+				i++;
+				j--;
+			}
+		}
+	}
+}
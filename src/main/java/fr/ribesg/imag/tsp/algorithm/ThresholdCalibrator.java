@@ -0,0 +1,298 @@
+package fr.ribesg.imag.tsp.algorithm;
+import fr.ribesg.imag.tsp.TSPMain;
+import fr.ribesg.imag.tsp.collection.PointList;
+import fr.ribesg.imag.tsp.utils.Timer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Finds a good threshold for the {@link DivideAndConquerTSP} algorithm.
+ * <p/>
+ * Short Divide & Conquer runs are made on a random sample of the actual
+ * instance with a set of candidate thresholds. The fastest threshold whose
+ * tour is not much longer than the best one found is kept.
+ * <p/>
+ * Candidates are tried from the smallest to the biggest, and the sweep stops
+ * when the time budget is spent or when times keep rising.
+ * <p/>
+ * Results are cached in a file in the user's home directory, keyed by the
+ * number of cores, the order of magnitude of the instance size and how
+ * spread out its points are, so that the calibration only happens once per
+ * machine and kind of instance.
+ *
+ * @author Ribesg
+ */
+public class ThresholdCalibrator {
+
+	// File in which calibration results are cached
+	private static final String CACHE_FILE = ".tsp-calibration.properties";
+
+	// Thresholds we try
+	private static final int[] CANDIDATES = {5, 10, 20, 40, 80, 160, 320, 640, 1_280};
+
+	// Maximum size of the sample we run the calibration on
+	private static final int SAMPLE_SIZE = 20_000;
+
+	// Number of runs per candidate on small samples, we keep the fastest one
+	private static final int RUNS = 3;
+
+	// Samples bigger than this only get a single run per candidate
+	private static final int SMALL_SAMPLE_SIZE = 10_000;
+
+	// Maximum time spent measuring candidates, in nanoseconds
+	private static final long TIME_BUDGET = 3_000_000_000L;
+
+	// Number of consecutive candidates slower than the previous one after which we stop
+	private static final int MAX_RISES = 2;
+
+	// Accepted tour length loss compared to the best candidate, in percent
+	private static final double MAX_LENGTH_LOSS = 2d;
+
+	private final Random rand = new Random();
+
+	/**
+	 * Gets the threshold to use for the provided instance, from the cache
+	 * if possible.
+	 *
+	 * @param points      the instance to be solved
+	 * @param recalibrate if we ignore the cached value
+	 *
+	 * @return the chosen threshold and why it was chosen
+	 */
+	public Result calibrate(final PointList points, final boolean recalibrate) {
+		final File cacheFile = new File(System.getProperty("user.home"), CACHE_FILE);
+		final String key = cacheKey(points);
+		final Properties cache = loadCache(cacheFile);
+
+		// Divide & Conquer never stops dividing a group of identical points
+		// bigger than its threshold, look at the whole instance to be safe
+		final int duplicates = largestDuplicateGroup(points);
+
+		if (!recalibrate) {
+			final String cached = cache.getProperty(key);
+			if (cached != null) {
+				try {
+					final int threshold = Integer.parseInt(cached);
+					if (threshold >= duplicates) {
+						return new Result(threshold, "cached value for " + key + " in '" + cacheFile + "'");
+					}
+					// Would never terminate on this instance, calibrate again
+				} catch (final NumberFormatException e) {
+					// Invalid cache entry, just calibrate again
+				}
+			}
+		}
+
+		final Result result = this.measure(points, duplicates);
+		if (result == null) {
+			// Nothing was measured, do not cache this for other instances
+			if (duplicates > CANDIDATES[0]) {
+				return new Result(duplicates, "size of the largest group of identical points");
+			}
+			// Empty instance, anything works
+			return new Result(CANDIDATES[0], "empty instance");
+		}
+		cache.setProperty(key, Integer.toString(result.getThreshold()));
+		saveCache(cacheFile, cache);
+		return result;
+	}
+
+	/**
+	 * Runs the candidates on a sample of the instance.
+	 *
+	 * @param points     the instance to be solved
+	 * @param duplicates the size of the largest group of identical points
+	 *
+	 * @return the chosen threshold and why it was chosen, or null if no
+	 * candidate could be measured
+	 */
+	private Result measure(final PointList points, final int duplicates) {
+		final PointList sample = this.sample(points, Math.min(points.size(), SAMPLE_SIZE));
+		final int runs = sample.size() <= SMALL_SAMPLE_SIZE ? RUNS : 1;
+
+		final long deadline = System.nanoTime() + TIME_BUDGET;
+		final long[] times = new long[CANDIDATES.length];
+		final double[] lengths = new double[CANDIDATES.length];
+		double bestLength = Double.MAX_VALUE;
+		long previousTime = Long.MAX_VALUE;
+		int rises = 0;
+		for (int c = 0; c < CANDIDATES.length; c++) {
+			times[c] = Long.MAX_VALUE;
+		}
+		for (int c = 0; c < CANDIDATES.length; c++) {
+			if (CANDIDATES[c] < duplicates) {
+				// Would never terminate
+				continue;
+			}
+			if (CANDIDATES[c] > sample.size()) {
+				// Would be a simple Greedy run, no need to go further
+				break;
+			}
+			final TSP algo = new DivideAndConquerTSP(CANDIDATES[c]);
+			for (int r = 0; r < runs; r++) {
+				final Timer timer = new Timer().start();
+				// Greedy works in place, so each run needs its own copy
+				final PointList result = algo.run(sample.copy());
+				times[c] = Math.min(times[c], timer.stop().nanoDiff());
+				lengths[c] = result.getTotalLength(true);
+				if (System.nanoTime() > deadline) {
+					break;
+				}
+			}
+			bestLength = Math.min(bestLength, lengths[c]);
+
+			rises = times[c] > previousTime ? rises + 1 : 0;
+			previousTime = times[c];
+			if (rises >= MAX_RISES || System.nanoTime() > deadline) {
+				break;
+			}
+		}
+
+		// Fastest candidate among those which produce a good enough tour
+		int chosen = -1;
+		for (int c = 0; c < CANDIDATES.length; c++) {
+			if (times[c] != Long.MAX_VALUE && lengthLoss(lengths[c], bestLength) <= MAX_LENGTH_LOSS) {
+				if (chosen == -1 || times[c] < times[chosen]) {
+					chosen = c;
+				}
+			}
+		}
+		if (chosen == -1) {
+			return null;
+		}
+
+		final StringBuilder reason = new StringBuilder();
+		reason.append("fastest threshold on a ");
+		reason.append(sample.size());
+		reason.append(" points sample (");
+		reason.append(Timer.parseDiff(times[chosen]));
+		reason.append(") with a tour at most ");
+		reason.append(TSPMain.getFormatter().format(MAX_LENGTH_LOSS));
+		reason.append("% longer than the best one (+");
+		reason.append(TSPMain.getFormatter().format(lengthLoss(lengths[chosen], bestLength)));
+		reason.append("%)");
+		return new Result(CANDIDATES[chosen], reason.toString());
+	}
+
+	/** Picks size distinct random points of the provided list, keeping its bounds */
+	private PointList sample(final PointList points, final int size) {
+		final float[][] source = points.getFloatMap();
+		final PointList result = new PointList(size, points.getMinX(), points.getMaxX(), points.getMinY(), points.getMaxY());
+		// Selection sampling: each point is kept with probability needed / remaining
+		int needed = size;
+		for (int i = 0; i < source.length && needed > 0; i++) {
+			if (this.rand.nextInt(source.length - i) < needed) {
+				result.add(source[i][0], source[i][1]);
+				needed--;
+			}
+		}
+		return result;
+	}
+
+	/** Gets the amount of points of the biggest group of points at the same coordinates */
+	private static int largestDuplicateGroup(final PointList points) {
+		final float[][] source = points.getFloatMap();
+		final long[] keys = new long[source.length];
+		for (int i = 0; i < source.length; i++) {
+			keys[i] = (long) Float.floatToIntBits(source[i][0]) << 32 | Float.floatToIntBits(source[i][1]) & 0xFFFFFFFFL;
+		}
+		Arrays.sort(keys);
+		int result = Math.min(1, keys.length);
+		int current = 1;
+		for (int i = 1; i < keys.length; i++) {
+			current = keys[i] == keys[i - 1] ? current + 1 : 1;
+			result = Math.max(result, current);
+		}
+		return result;
+	}
+
+	private static double lengthLoss(final double length, final double bestLength) {
+		return bestLength == 0 ? 0 : (length - bestLength) * 100d / bestLength;
+	}
+
+	/** Thresholds depend on the machine, on the instance size and on its distribution */
+	private static String cacheKey(final PointList points) {
+		final int size = points.size();
+		final int magnitude = size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+		return "cores" + Runtime.getRuntime().availableProcessors() + ".size2e" + magnitude + ".spread" + spread(points);
+	}
+
+	/**
+	 * Cuts the square of the instance in a grid of about size / 4 cells and
+	 * gets the part of the cells which contain points, rounded to a quarter.
+	 * <p/>
+	 * Uniform instances fill almost all cells (4), clustered ones or those
+	 * following roads leave most of them empty (1 to 3).
+	 *
+	 * @return the part of occupied cells, in quarters, from 0 to 4
+	 */
+	private static int spread(final PointList points) {
+		final int side = Math.max(1, (int) Math.sqrt(points.size() / 4));
+		final double width = points.getMaxX() - points.getMinX();
+		final double height = points.getMaxY() - points.getMinY();
+		if (points.size() == 0 || width <= 0 || height <= 0) {
+			return 0;
+		}
+		final boolean[] cells = new boolean[side * side];
+		int occupied = 0;
+		for (final float[] p : points.getFloatMap()) {
+			final int x = Math.min(side - 1, Math.max(0, (int) ((p[0] - points.getMinX()) / width * side)));
+			final int y = Math.min(side - 1, Math.max(0, (int) ((p[1] - points.getMinY()) / height * side)));
+			if (!cells[y * side + x]) {
+				cells[y * side + x] = true;
+				occupied++;
+			}
+		}
+		return (int) Math.round(occupied * 4d / cells.length);
+	}
+
+	private static Properties loadCache(final File file) {
+		final Properties result = new Properties();
+		if (file.isFile()) {
+			try (final InputStream is = new FileInputStream(file)) {
+				result.load(is);
+			} catch (final IOException e) {
+				System.out.println("\tUnable to read calibration cache '" + file + "', ignoring it.");
+			}
+		}
+		return result;
+	}
+
+	private static void saveCache(final File file, final Properties cache) {
+		try (final OutputStream os = new FileOutputStream(file)) {
+			cache.store(os, "TSP Divide & Conquer calibrated thresholds");
+		} catch (final IOException e) {
+			System.out.println("\tUnable to write calibration cache '" + file + "'.");
+		}
+	}
+
+	/**
+	 * The result of a calibration.
+	 */
+	public static class Result {
+
+		private final int    threshold;
+		private final String reason;
+
+		public Result(final int threshold, final String reason) {
+			this.threshold = threshold;
+			this.reason = reason;
+		}
+
+		public int getThreshold() {
+			return threshold;
+		}
+
+		public String getReason() {
+			return reason;
+		}
+	}
+}
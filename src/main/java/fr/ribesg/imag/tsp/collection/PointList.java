@@ -37,6 +37,15 @@ public class PointList {
 		this.nextAvailableIndex++;
 	}
 
+	/**
+	 * Sets the point at the provided index, without changing where the next
+	 * added point will go. Used to fill a list from multiple threads.
+	 */
+	public void set(final int index, final float x, final float y) {
+		this.points[index][0] = x;
+		this.points[index][1] = y;
+	}
+
 	public int size() {
 		return this.points.length;
 	}
@@ -62,6 +71,15 @@ public class PointList {
 		}
 	}
 
+	/** Gets a new PointList with the same points, in the same order */
+	public PointList copy() {
+		final PointList result = new PointList(this.points.length, this.minX, this.maxX, this.minY, this.maxY);
+		for (final float[] p : this.points) {
+			result.add(p[0], p[1]);
+		}
+		return result;
+	}
+
 	// ### Array modification and conversion methods ### //
 
 	public void permut(final int i, final int j) {
@@ -0,0 +1,243 @@
+package fr.ribesg.imag.tsp.distributed;
+import fr.ribesg.imag.tsp.algorithm.DivideAndConquerTSP;
+import fr.ribesg.imag.tsp.algorithm.TSP;
+import fr.ribesg.imag.tsp.collection.PointList;
+import fr.ribesg.imag.tsp.utils.ThreadPools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A distributed version of the {@link DivideAndConquerTSP} algorithm.
+ * <p/>
+ * The instance is divided the same way as in the DivideAndConquer
+ * algorithm, until there are a few partitions per {@link Worker}. Each
+ * partition is sent to a free Worker, which solves it with the
+ * DivideAndConquer algorithm, and the returned sub-tours are merged the same
+ * way as in the DivideAndConquer algorithm.
+ * <p/>
+ * If a Worker dies or stops answering, the partition it was working on is
+ * reassigned to another Worker. If there is no Worker left, partitions are
+ * solved locally.
+ *
+ * @author Ribesg
+ */
+public class Coordinator implements TSP {
+
+	// Pool of threads, each one waits for a Worker
+	private static final ExecutorService executors = Executors.newCachedThreadPool();
+
+	// Closes the connections of Workers which do not read what we send
+	private static final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(ThreadPools.newDaemonFactory("Coordinator watchdog"));
+
+	// Maximum time to connect to a Worker, in milliseconds
+	private static final int CONNECT_TIMEOUT = 5_000;
+
+	// Time given to a Worker to solve a partition, in milliseconds: a fixed
+	// part plus a part per point, far above the actual solving time
+	private static final int BASE_TIMEOUT = 10_000;
+	private static final int POINTS_PER_TIMEOUT_MS = 50;
+
+	// Amount of partitions we want per Worker, to balance the load
+	private static final int PARTITIONS_PER_WORKER = 4;
+
+	private final List<InetSocketAddress> workers;
+
+	// Limit at which we stop dividing
+	private final int threshold;
+
+	public Coordinator(final List<InetSocketAddress> workers, final int threshold) {
+		this.workers = workers;
+		this.threshold = threshold;
+	}
+
+	@Override
+	public PointList run(final PointList list) {
+		// Connect to all Workers
+		final List<Connection> connections = new ArrayList<>();
+		final BlockingQueue<Connection> available = new LinkedBlockingQueue<>();
+		final AtomicInteger alive = new AtomicInteger();
+		for (final InetSocketAddress address : this.workers) {
+			try {
+				final Connection connection = new Connection(address);
+				connections.add(connection);
+				available.add(connection);
+				alive.incrementAndGet();
+			} catch (final IOException e) {
+				System.out.println("\tUnable to connect to Worker " + address + ": " + e.getMessage());
+			}
+		}
+
+		// Divide until we have enough partitions
+		int depth = 0;
+		for (int partitions = 1; partitions < Math.max(1, alive.get()) * PARTITIONS_PER_WORKER; partitions *= 4) {
+			depth++;
+		}
+		final Partition root = new Partition(list, depth, available, alive);
+
+		try {
+			return root.merge();
+		} catch (InterruptedException | ExecutionException e) {
+			e.printStackTrace();
+			return null;
+		} finally {
+			// Also close the connections still in use if something failed
+			for (final Connection connection : connections) {
+				connection.close();
+			}
+		}
+	}
+
+	/**
+	 * A part of the instance, either divided in 4 sub-Partitions or solved
+	 * as a whole by a Worker.
+	 * <p/>
+	 * Only the points of the Partitions sent to Workers are kept, and only
+	 * until their result comes back, so that the Coordinator does not hold
+	 * more than a copy of the instance.
+	 */
+	private class Partition {
+
+		private final double minX, maxX, minY, maxY;
+
+		private final int size;
+
+		private final Partition[] children;
+
+		private final Future<PointList> result;
+
+		private Partition(final PointList list, final int depth, final BlockingQueue<Connection> available, final AtomicInteger alive) {
+			this.minX = list.getMinX();
+			this.maxX = list.getMaxX();
+			this.minY = list.getMinY();
+			this.maxY = list.getMaxY();
+			this.size = list.size();
+			if (depth > 0 && list.size() > threshold) {
+				final PointList[] quarters = list.divide();
+				this.children = new Partition[quarters.length];
+				for (int i = 0; i < quarters.length; i++) {
+					this.children[i] = new Partition(quarters[i], depth - 1, available, alive);
+				}
+				this.result = null;
+			} else {
+				this.children = null;
+				// The task is dropped, with its points, once it is done
+				this.result = executors.submit(new Callable<PointList>() {
+
+					@Override
+					public PointList call() throws Exception {
+						return solve(list, available, alive);
+					}
+				});
+			}
+		}
+
+		/** Merges the results the same way the DivideAndConquer algorithm does */
+		private PointList merge() throws InterruptedException, ExecutionException {
+			if (this.children == null) {
+				return this.result.get();
+			} else {
+				final PointList result = new PointList(this.size, this.minX, this.maxX, this.minY, this.maxY);
+				for (final int i : new int[] {0, 1, 3, 2}) {
+					result.append(this.children[i].merge());
+					// Sub-tours are copied, no need to keep them
+					this.children[i] = null;
+				}
+				return result;
+			}
+		}
+	}
+
+	/** Sends a partition to the first free Worker, retrying on another one if it dies */
+	private PointList solve(final PointList list, final BlockingQueue<Connection> available, final AtomicInteger alive) throws InterruptedException {
+		if (list.size() == 0) {
+			return list;
+		}
+		while (alive.get() > 0) {
+			final Connection connection = available.poll(100, TimeUnit.MILLISECONDS);
+			if (connection == null) {
+				// All Workers are busy, or the last ones just died
+				continue;
+			}
+			try {
+				final PointList result = connection.solve(this.threshold, list);
+				available.put(connection);
+				return result;
+			} catch (final IOException e) {
+				// Includes timeouts, a Worker which does not answer is as good as dead
+				connection.close();
+				alive.decrementAndGet();
+				System.out.println("\tWorker " + connection.address + " lost (" + e + "), reassigning its partition of " + list.size() + " points");
+			}
+		}
+		System.out.println("\tNo Worker left, solving partition of " + list.size() + " points locally");
+		return new DivideAndConquerTSP(this.threshold).run(list);
+	}
+
+	/**
+	 * An open connection to a Worker.
+	 */
+	private static class Connection implements Closeable {
+
+		private final InetSocketAddress address;
+		private final Socket            socket;
+		private final DataInputStream   in;
+		private final DataOutputStream  out;
+
+		private Connection(final InetSocketAddress address) throws IOException {
+			this.address = address;
+			this.socket = new Socket();
+			this.socket.connect(address, CONNECT_TIMEOUT);
+			this.in = new DataInputStream(new BufferedInputStream(this.socket.getInputStream()));
+			this.out = new DataOutputStream(new BufferedOutputStream(this.socket.getOutputStream()));
+		}
+
+		private PointList solve(final int threshold, final PointList list) throws IOException {
+			final int timeout = BASE_TIMEOUT + list.size() / POINTS_PER_TIMEOUT_MS;
+			this.socket.setSoTimeout(timeout);
+			// Writes ignore the socket timeout and block once the Worker stops
+			// reading, so we close the socket if sending takes too long
+			final ScheduledFuture<?> closer = watchdog.schedule(new Runnable() {
+
+				@Override
+				public void run() {
+					close();
+				}
+			}, timeout, TimeUnit.MILLISECONDS);
+			try {
+				Protocol.writeRequest(this.out, threshold, list);
+			} finally {
+				closer.cancel(false);
+			}
+			return Protocol.readPointList(this.in);
+		}
+
+		@Override
+		public void close() {
+			try {
+				this.socket.close();
+			} catch (final IOException e) {
+				// Nothing to do
+			}
+		}
+	}
+}
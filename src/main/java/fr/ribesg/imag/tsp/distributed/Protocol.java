@@ -0,0 +1,52 @@
+package fr.ribesg.imag.tsp.distributed;
+import fr.ribesg.imag.tsp.collection.PointList;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * The binary encoding used between the Coordinator and its Workers.
+ * <p/>
+ * A request is the Divide & Conquer threshold (int) followed by a PointList,
+ * a response is a single PointList. A PointList is its bounds (4 doubles),
+ * its size (int) then the x and y coordinates of each point (2 floats).
+ *
+ * @author Ribesg
+ */
+public class Protocol {
+
+	public static void writeRequest(final DataOutputStream out, final int threshold, final PointList list) throws IOException {
+		out.writeInt(threshold);
+		writePointList(out, list);
+	}
+
+	public static void writePointList(final DataOutputStream out, final PointList list) throws IOException {
+		out.writeDouble(list.getMinX());
+		out.writeDouble(list.getMaxX());
+		out.writeDouble(list.getMinY());
+		out.writeDouble(list.getMaxY());
+		out.writeInt(list.size());
+		for (final float[] p : list.getFloatMap()) {
+			out.writeFloat(p[0]);
+			out.writeFloat(p[1]);
+		}
+		out.flush();
+	}
+
+	public static PointList readPointList(final DataInputStream in) throws IOException {
+		final double minX = in.readDouble();
+		final double maxX = in.readDouble();
+		final double minY = in.readDouble();
+		final double maxY = in.readDouble();
+		final int size = in.readInt();
+		if (size < 0) {
+			throw new IOException("Invalid PointList size: " + size);
+		}
+		final PointList result = new PointList(size, minX, maxX, minY, maxY);
+		for (int i = 0; i < size; i++) {
+			result.add(in.readFloat(), in.readFloat());
+		}
+		return result;
+	}
+}
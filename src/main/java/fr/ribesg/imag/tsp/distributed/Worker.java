@@ -0,0 +1,73 @@
+package fr.ribesg.imag.tsp.distributed;
+import fr.ribesg.imag.tsp.algorithm.DivideAndConquerTSP;
+import fr.ribesg.imag.tsp.collection.PointList;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * A worker node, solving sub-instances sent by a {@link Coordinator} with
+ * the {@link DivideAndConquerTSP} algorithm.
+ * <p/>
+ * Each connection is handled in its own Thread, and can carry any amount of
+ * requests, one after the other.
+ *
+ * @author Ribesg
+ */
+public class Worker {
+
+	private final int port;
+
+	public Worker(final int port) {
+		this.port = port;
+	}
+
+	/** Accepts connections forever */
+	public void run() throws IOException {
+		try (final ServerSocket server = new ServerSocket(this.port)) {
+			System.out.println("\tListening on port " + this.port);
+			while (true) {
+				final Socket socket = server.accept();
+				new Thread(new Runnable() {
+
+					@Override
+					public void run() {
+						handle(socket);
+					}
+				}, "Worker " + socket.getRemoteSocketAddress()).start();
+			}
+		}
+	}
+
+	private void handle(final Socket socket) {
+		System.out.println("\tCoordinator connected from " + socket.getRemoteSocketAddress());
+		try (final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		     final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+			while (true) {
+				final int threshold;
+				try {
+					threshold = in.readInt();
+				} catch (final EOFException e) {
+					// The Coordinator is done with us
+					break;
+				}
+				final PointList list = Protocol.readPointList(in);
+				final PointList result = new DivideAndConquerTSP(threshold).run(list);
+				if (result == null) {
+					// Closing the connection makes the Coordinator reassign the partition
+					System.out.println("\tFailed to solve " + list.size() + " points, closing connection");
+					break;
+				}
+				Protocol.writePointList(out, result);
+			}
+		} catch (final IOException e) {
+			System.out.println("\tConnection with " + socket.getRemoteSocketAddress() + " lost: " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package fr.ribesg.imag.tsp.generator;
+
+/**
+ * Points are grouped in Gaussian clusters of various sizes around random
+ * centers.
+ *
+ * @author Ribesg
+ */
+public class ClusterDistribution implements Distribution {
+
+	// Standard deviation range of a cluster
+	private static final double MIN_SIGMA = 0.005, MAX_SIGMA = 0.05;
+
+	// Center and standard deviation of each cluster
+	private final float[][] centers;
+	private final double[]  sigmas;
+
+	/**
+	 * @param nbClusters the amount of clusters
+	 * @param rand       the generator used to place the clusters
+	 */
+	public ClusterDistribution(final int nbClusters, final SeededRandom rand) {
+		this.centers = new float[nbClusters][2];
+		this.sigmas = new double[nbClusters];
+		for (int i = 0; i < nbClusters; i++) {
+			this.centers[i][0] = rand.nextFloat();
+			this.centers[i][1] = rand.nextFloat();
+			this.sigmas[i] = MIN_SIGMA + rand.nextDouble() * (MAX_SIGMA - MIN_SIGMA);
+		}
+	}
+
+	@Override
+	public void point(final int index, final SeededRandom rand, final float[] result) {
+		final int cluster = rand.nextInt(this.centers.length);
+		final double sigma = this.sigmas[cluster];
+		result[0] = Generator.reflect(this.centers[cluster][0] + rand.nextGaussian() * sigma);
+		result[1] = Generator.reflect(this.centers[cluster][1] + rand.nextGaussian() * sigma);
+	}
+}
@@ -0,0 +1,21 @@
+package fr.ribesg.imag.tsp.generator;
+
+/**
+ * Represents a way of placing random points in the [0..1[ x [0..1[ square.
+ * <p/>
+ * Implementations must not have any mutable state: they are called from
+ * multiple threads at the same time.
+ *
+ * @author Ribesg
+ */
+public interface Distribution {
+
+	/**
+	 * Places the point number index.
+	 *
+	 * @param index  the index of the point in the generated list
+	 * @param rand   the generator to use, owned by the calling thread
+	 * @param result where to put the x and y coordinates
+	 */
+	public void point(final int index, final SeededRandom rand, final float[] result);
+}
@@ -0,0 +1,121 @@
+package fr.ribesg.imag.tsp.generator;
+import fr.ribesg.imag.tsp.collection.PointList;
+import fr.ribesg.imag.tsp.utils.ThreadPools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Generates random PointLists in parallel.
+ * <p/>
+ * The list is cut in chunks of a fixed size, each chunk being filled by its
+ * own random stream split from the seed. The result only depends on the
+ * seed, the distribution and the amount of points, not on the number of
+ * threads or on the order in which chunks are filled.
+ *
+ * @author Ribesg
+ */
+public class Generator {
+
+	// Pool of threads, one per core as generation is CPU bound
+	private static final ExecutorService executors = ThreadPools.newCpuBoundPool("Generator");
+
+	// Amount of points generated by a single stream
+	private static final int CHUNK_SIZE = 1 << 16;
+
+	// Highest float strictly lower than 1, PointList bounds are exclusive
+	private static final float MAX_COORDINATE = Math.nextAfter(1f, 0d);
+
+	/**
+	 * Gets a Distribution from its name.
+	 *
+	 * @param name     uniform, clusters, grid or roads
+	 * @param nbPoints the amount of points that will be generated
+	 * @param seed     the seed used to build the distribution
+	 *
+	 * @return the Distribution, or null if the name is unknown
+	 */
+	public static Distribution getDistribution(final String name, final int nbPoints, final long seed) {
+		// Use a stream which is not used to generate points
+		final SeededRandom rand = new SeededRandom(seed).split(-1);
+		switch (name.toLowerCase()) {
+			case "uniform":
+				return new UniformDistribution();
+			case "clusters":
+				return new ClusterDistribution(Math.max(1, (int) Math.sqrt(nbPoints) / 10), rand);
+			case "grid":
+				return new GridDistribution(nbPoints);
+			case "roads":
+				return new RoadDistribution(Math.max(1, (int) Math.sqrt(nbPoints) / 5), rand);
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Generates a list of points in the [0..1[ x [0..1[ square.
+	 *
+	 * @param distribution how points are placed
+	 * @param nbPoints     the amount of points
+	 * @param seed         the seed, the same seed always gives the same list
+	 *
+	 * @return the generated list
+	 */
+	public static PointList generate(final Distribution distribution, final int nbPoints, final long seed) {
+		final PointList result = new PointList(nbPoints, 0d, 1d, 0d, 1d);
+		final SeededRandom rand = new SeededRandom(seed);
+
+		final List<Callable<Void>> tasks = new ArrayList<>();
+		for (int start = 0; start < nbPoints; start += CHUNK_SIZE) {
+			final int from = start;
+			final int to = Math.min(nbPoints, start + CHUNK_SIZE);
+			final SeededRandom chunkRand = rand.split(start / CHUNK_SIZE);
+			tasks.add(new Callable<Void>() {
+
+				@Override
+				public Void call() throws Exception {
+					final float[] point = new float[2];
+					for (int i = from; i < to; i++) {
+						distribution.point(i, chunkRand, point);
+						result.set(i, point[0], point[1]);
+					}
+					return null;
+				}
+			});
+		}
+		try {
+			for (final Future<Void> future : executors.invokeAll(tasks)) {
+				future.get();
+			}
+			return result;
+		} catch (InterruptedException | ExecutionException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Brings a coordinate back in the [0..1[ interval by reflecting it on the
+	 * borders of the square.
+	 * <p/>
+	 * Clamping would stack every point falling outside of the square on the
+	 * same border coordinates, and the Divide &amp; Conquer algorithm can not
+	 * split a group of identical points.
+	 */
+	static float reflect(final double coordinate) {
+		// Fold in [0..2[ then mirror the [1..2[ part
+		double folded = coordinate % 2d;
+		if (folded < 0d) {
+			folded += 2d;
+		}
+		if (folded >= 1d) {
+			folded = 2d - folded;
+		}
+		final float result = (float) folded;
+		return result < 1f ? result : MAX_COORDINATE;
+	}
+}
@@ -0,0 +1,35 @@
+package fr.ribesg.imag.tsp.generator;
+
+/**
+ * Points are placed on a regular grid, then slightly moved in a random
+ * direction.
+ *
+ * @author Ribesg
+ */
+public class GridDistribution implements Distribution {
+
+	// Standard deviation of the jitter, relative to the size of a cell
+	private static final double JITTER = 0.15;
+
+	// Number of columns and rows
+	private final int side;
+
+	// Size of a cell
+	private final double cell;
+
+	/**
+	 * @param nbPoints the amount of points that will be generated
+	 */
+	public GridDistribution(final int nbPoints) {
+		this.side = Math.max(1, (int) Math.ceil(Math.sqrt(nbPoints)));
+		this.cell = 1d / this.side;
+	}
+
+	@Override
+	public void point(final int index, final SeededRandom rand, final float[] result) {
+		final int column = index % this.side;
+		final int row = index / this.side;
+		result[0] = Generator.reflect((column + 0.5) * this.cell + rand.nextGaussian() * JITTER * this.cell);
+		result[1] = Generator.reflect((row + 0.5) * this.cell + rand.nextGaussian() * JITTER * this.cell);
+	}
+}
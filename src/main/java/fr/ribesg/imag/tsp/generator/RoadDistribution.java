@@ -0,0 +1,82 @@
+package fr.ribesg.imag.tsp.generator;
+
+/**
+ * Looks like a road network: towns are randomly placed and linked to their
+ * closest neighbours by straight roads. Points are spread along the roads,
+ * with part of them gathered around the towns.
+ *
+ * @author Ribesg
+ */
+public class RoadDistribution implements Distribution {
+
+	// Number of roads leaving each town
+	private static final int ROADS_PER_TOWN = 3;
+
+	// Standard deviation of the distance between a point and its road
+	private static final double ROAD_WIDTH = 0.001;
+
+	// Standard deviation of the distance between a point and its town
+	private static final double TOWN_RADIUS = 0.01;
+
+	// Part of the points which are in towns rather than on roads
+	private static final double TOWN_RATIO = 0.3;
+
+	private final float[][] towns;
+
+	// Roads, as indexes of towns
+	private final int[][] roads;
+
+	/**
+	 * @param nbTowns the amount of towns
+	 * @param rand    the generator used to place the towns
+	 */
+	public RoadDistribution(final int nbTowns, final SeededRandom rand) {
+		this.towns = new float[nbTowns][2];
+		for (int i = 0; i < nbTowns; i++) {
+			this.towns[i][0] = rand.nextFloat();
+			this.towns[i][1] = rand.nextFloat();
+		}
+
+		// Link each town to its closest neighbours
+		final int roadsPerTown = Math.min(ROADS_PER_TOWN, nbTowns - 1);
+		this.roads = new int[nbTowns * roadsPerTown][];
+		int nextRoad = 0;
+		for (int i = 0; i < nbTowns; i++) {
+			final boolean[] linked = new boolean[nbTowns];
+			linked[i] = true;
+			for (int r = 0; r < roadsPerTown; r++) {
+				int closest = -1;
+				float closestDistance = Float.MAX_VALUE;
+				for (int j = 0; j < nbTowns; j++) {
+					if (!linked[j]) {
+						final float xDiff = this.towns[j][0] - this.towns[i][0];
+						final float yDiff = this.towns[j][1] - this.towns[i][1];
+						final float distance = xDiff * xDiff + yDiff * yDiff;
+						if (distance < closestDistance) {
+							closest = j;
+							closestDistance = distance;
+						}
+					}
+				}
+				linked[closest] = true;
+				this.roads[nextRoad++] = new int[] {i, closest};
+			}
+		}
+	}
+
+	@Override
+	public void point(final int index, final SeededRandom rand, final float[] result) {
+		if (this.roads.length == 0 || rand.nextDouble() < TOWN_RATIO) {
+			final float[] town = this.towns[rand.nextInt(this.towns.length)];
+			result[0] = Generator.reflect(town[0] + rand.nextGaussian() * TOWN_RADIUS);
+			result[1] = Generator.reflect(town[1] + rand.nextGaussian() * TOWN_RADIUS);
+		} else {
+			final int[] road = this.roads[rand.nextInt(this.roads.length)];
+			final float[] a = this.towns[road[0]];
+			final float[] b = this.towns[road[1]];
+			final double t = rand.nextDouble();
+			result[0] = Generator.reflect(a[0] + (b[0] - a[0]) * t + rand.nextGaussian() * ROAD_WIDTH);
+			result[1] = Generator.reflect(a[1] + (b[1] - a[1]) * t + rand.nextGaussian() * ROAD_WIDTH);
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package fr.ribesg.imag.tsp.generator;
+
+/**
+ * A small, fast and splittable pseudo random number generator (SplitMix64).
+ * <p/>
+ * Unlike {@link java.util.Random}, it is not synchronized and can be split
+ * into independent streams identified by an index, so that multiple threads
+ * can generate data in parallel and still get the exact same result for the
+ * same seed, whatever the number of threads.
+ *
+ * @author Ribesg
+ */
+public class SeededRandom {
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private final long seed;
+
+	private long state;
+
+	public SeededRandom(final long seed) {
+		this.seed = seed;
+		this.state = seed;
+	}
+
+	/** Gets an independent generator for the stream number index */
+	public SeededRandom split(final long index) {
+		return new SeededRandom(mix(this.seed ^ mix(index * GOLDEN_GAMMA + GOLDEN_GAMMA)));
+	}
+
+	public long nextLong() {
+		return mix(this.state += GOLDEN_GAMMA);
+	}
+
+	/** In [0..1[ */
+	public float nextFloat() {
+		return (this.nextLong() >>> 40) * 0x1.0p-24f;
+	}
+
+	/** In [0..1[ */
+	public double nextDouble() {
+		return (this.nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	/** In [0..bound[ */
+	public int nextInt(final int bound) {
+		return (int) ((this.nextLong() >>> 33) * bound >>> 31);
+	}
+
+	/**
+	 * Box-Muller transform, mean 0 and standard deviation 1.
+	 * <p/>
+	 * Uses StrictMath so that the result is the same on every JVM and CPU.
+	 */
+	public double nextGaussian() {
+		final double u = 1d - this.nextDouble();
+		final double v = this.nextDouble();
+		return StrictMath.sqrt(-2d * StrictMath.log(u)) * StrictMath.cos(2d * StrictMath.PI * v);
+	}
+
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
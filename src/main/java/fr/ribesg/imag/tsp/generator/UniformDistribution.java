@@ -0,0 +1,15 @@
+package fr.ribesg.imag.tsp.generator;
+
+/**
+ * Points are spread uniformly in the whole square.
+ *
+ * @author Ribesg
+ */
+public class UniformDistribution implements Distribution {
+
+	@Override
+	public void point(final int index, final SeededRandom rand, final float[] result) {
+		result[0] = rand.nextFloat();
+		result[1] = rand.nextFloat();
+	}
+}
@@ -0,0 +1,38 @@
+package fr.ribesg.imag.tsp.utils;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+public class ThreadPools {
+
+	/**
+	 * Creates a pool with one thread per core, for CPU bound tasks.
+	 *
+	 * @param name the name of the threads
+	 *
+	 * @return the pool
+	 */
+	public static ExecutorService newCpuBoundPool(final String name) {
+		return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), newDaemonFactory(name));
+	}
+
+	/**
+	 * Creates a factory of daemon threads, which do not prevent the JVM from
+	 * exiting.
+	 *
+	 * @param name the name of the threads
+	 *
+	 * @return the factory
+	 */
+	public static ThreadFactory newDaemonFactory(final String name) {
+		return new ThreadFactory() {
+
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread thread = new Thread(r, name);
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+}